@@ -4,11 +4,16 @@ import net.minecraft.server.MinecraftServer;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import java.io.BufferedReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,16 +57,21 @@ public class DataExporter {
         // The try-with-resources statement ensures the writer is closed automatically.
         try (FileWriter writer = new FileWriter(outputFile.toFile())) {
             // Write the CSV Header row.
-            writer.append("Category,ModID,Count\n");
+            // UniquePlayers is an estimate; PlayerSketch is the Base64 HyperLogLog behind it, so exports
+            // from several runs or servers can be decoded with HyperLogLog.fromBase64() and merged.
+            writer.append("Category,ModID,Count,UniquePlayers,PlayerSketch\n");
 
             // Write data from each usage map, categorizing each entry.
             // Ensure VortexTracker is correctly imported and its static maps are accessible.
-            writeMapToCSV(writer, VortexTracker.blockRightClickCounts, "BlockRightClick");
-            writeMapToCSV(writer, VortexTracker.itemRightClickCounts, "ItemRightClick");
-            writeMapToCSV(writer, VortexTracker.recipeCraftCounts, "CraftingOutput");
-            writeMapToCSV(writer, VortexTracker.entityDamageCounts, "EntityDamage");
-            writeMapToCSV(writer, VortexTracker.commandUsageCounts, "CommandUsage");
-            writeMapToCSV(writer, VortexTracker.chunkGenerationCounts, "ChunkGeneration");
+            writeMapToCSV(writer, VortexTracker.blockRightClickCounts, VortexTracker.blockRightClickPlayers, "BlockRightClick");
+            writeMapToCSV(writer, VortexTracker.itemRightClickCounts, VortexTracker.itemRightClickPlayers, "ItemRightClick");
+            writeMapToCSV(writer, VortexTracker.recipeCraftCounts, VortexTracker.recipeCraftPlayers, "CraftingOutput");
+            writeMapToCSV(writer, VortexTracker.entityDamageCounts, VortexTracker.entityDamagePlayers, "EntityDamage");
+            writeMapToCSV(writer, VortexTracker.commandUsageCounts, VortexTracker.commandUsagePlayers, "CommandUsage");
+            writeMapToCSV(writer, VortexTracker.chunkGenerationCounts, null, "ChunkGeneration");
+            // For presence categories the Count column is player-seconds rather than interactions.
+            writeMapToCSV(writer, PresenceTracker.getDimensionSeconds(), null, "DimensionPresence");
+            writeMapToCSV(writer, PresenceTracker.getBiomeSeconds(), null, "BiomePresence");
 
             System.out.println("Vortex: Mod usage data successfully saved to: " + outputFile.toAbsolutePath());
 
@@ -90,17 +100,103 @@ public class DataExporter {
      *
      * @param writer   The FileWriter instance to write to.
      * @param map      The map containing mod usage data for a specific category.
+     * @param players  The unique-player sketches for the category, or null if it has no player data.
      * @param category The name of the category (e.g., "BlockRightClick") to be included in the CSV.
      * @throws IOException If an I/O error occurs during writing.
      */
-    private static void writeMapToCSV(FileWriter writer, Map<String, Integer> map, String category) throws IOException {
+    private static void writeMapToCSV(FileWriter writer, Map<String, Integer> map, Map<String, HyperLogLog> players, String category) throws IOException {
         for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            HyperLogLog sketch = players == null ? null : players.get(entry.getKey());
             writer.append(category) // Append the category name
                     .append(",")     // Append a comma as a delimiter
                     .append(entry.getKey()) // Append the mod ID
                     .append(",")     // Append a comma
                     .append(String.valueOf(entry.getValue())) // Append the usage count
+                    .append(",")
+                    // Append the unique player estimate; left empty for categories without player data, so it isn't read as 0 players
+                    .append(players == null ? "" : String.valueOf(sketch == null ? 0 : sketch.estimate()))
+                    .append(",")
+                    .append(sketch == null ? "" : sketch.toBase64()) // Append the mergeable sketch (Base64 has no commas)
                     .append("\n");  // Append a newline to move to the next row
         }
     }
+
+    /**
+     * Merges an earlier export (from this or another server) into the in-memory data.
+     * Counts are added together and player sketches are merged, so unique players are not double counted.
+     * The file must be in the 'config/vortex/' directory, and each file can only be imported once until /vx clear.
+     *
+     * @param server   The running server, used to locate the config directory.
+     * @param fileName The name of the CSV file inside 'config/vortex/'.
+     * @return The number of rows merged.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is outside the config directory, was already imported, or a row is malformed.
+     */
+    public static int importCSV(MinecraftServer server, String fileName) throws IOException {
+        Path configDir = server.getServerDirectory().resolve("config").resolve(CONFIG_SUB_DIR).toAbsolutePath().normalize();
+        Path inputFile = configDir.resolve(fileName).normalize();
+        if (!inputFile.startsWith(configDir)) {
+            throw new IllegalArgumentException("Vortex: Import file must be inside " + configDir);
+        }
+        String importKey = configDir.relativize(inputFile).toString();
+        if (VortexTracker.importedFiles.contains(importKey)) {
+            throw new IllegalArgumentException("Vortex: " + importKey + " was already imported since the last /vx clear; importing it again would double its counts.");
+        }
+
+        Map<String, Map<String, Integer>> countsByCategory = new HashMap<>();
+        countsByCategory.put("BlockRightClick", VortexTracker.blockRightClickCounts);
+        countsByCategory.put("ItemRightClick", VortexTracker.itemRightClickCounts);
+        countsByCategory.put("CraftingOutput", VortexTracker.recipeCraftCounts);
+        countsByCategory.put("EntityDamage", VortexTracker.entityDamageCounts);
+        countsByCategory.put("CommandUsage", VortexTracker.commandUsageCounts);
+        countsByCategory.put("ChunkGeneration", VortexTracker.chunkGenerationCounts);
+
+        Map<String, Map<String, HyperLogLog>> playersByCategory = new HashMap<>();
+        playersByCategory.put("BlockRightClick", VortexTracker.blockRightClickPlayers);
+        playersByCategory.put("ItemRightClick", VortexTracker.itemRightClickPlayers);
+        playersByCategory.put("CraftingOutput", VortexTracker.recipeCraftPlayers);
+        playersByCategory.put("EntityDamage", VortexTracker.entityDamagePlayers);
+        playersByCategory.put("CommandUsage", VortexTracker.commandUsagePlayers);
+
+        // Parse and validate every row before touching the tracker, so a malformed file merges nothing.
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<HyperLogLog> sketches = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(inputFile)) {
+            String line = reader.readLine(); // Skip the CSV header row
+            while ((line = reader.readLine()) != null) {
+                // Columns: Category,ModID,Count[,UniquePlayers,PlayerSketch]. Exports from before sketches have only three.
+                String[] columns = line.split(",", -1);
+                boolean presence = columns[0].equals("DimensionPresence") || columns[0].equals("BiomePresence");
+                if (columns.length < 3 || !(presence || countsByCategory.containsKey(columns[0]))) {
+                    continue; // Blank line or unknown category, e.g. from a newer Vortex version
+                }
+                boolean hasSketch = playersByCategory.containsKey(columns[0]) && columns.length >= 5 && !columns[4].isEmpty();
+                int count = Integer.parseInt(columns[2]);
+                if (count < 0) {
+                    throw new IllegalArgumentException("Vortex: Negative count for " + columns[0] + "/" + columns[1] + ": " + count);
+                }
+                rows.add(columns);
+                counts.add(count);
+                sketches.add(hasSketch ? HyperLogLog.fromBase64(columns[4]) : null);
+            }
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            String[] columns = rows.get(i);
+            if (!countsByCategory.containsKey(columns[0])) {
+                // Presence rows hold player-seconds. The import command runs on the server thread, as PresenceTracker requires.
+                PresenceTracker.addSeconds(columns[0].equals("DimensionPresence"), columns[1], counts.get(i));
+                continue;
+            }
+            VortexTracker.addCount(countsByCategory.get(columns[0]), columns[1], counts.get(i));
+            if (sketches.get(i) != null) {
+                VortexTracker.mergePlayers(playersByCategory.get(columns[0]), columns[1], sketches.get(i));
+            }
+        }
+        VortexTracker.importedFiles.add(importKey);
+        int merged = rows.size();
+        System.out.println("Vortex: Imported " + merged + " rows from " + inputFile);
+        return merged;
+    }
 }
@@ -0,0 +1,66 @@
+package space.atmo.vortex;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every namespace (mod ID) seen by Vortex a small, dense integer index.
+ * Indices never change once assigned, so per-mod state such as the namespace filter bitset
+ * can be stored in flat arrays and looked up without hashing on the hot path.
+ */
+public class ModIndex {
+    private static final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    // Index -> namespace. New slots are written in place (or into a larger copy when full) before the
+    // index is published in the map, so a reader holding an index always finds its name.
+    private static volatile String[] names = new String[64];
+    private static int size = 0;
+
+    /**
+     * Returns the index for a namespace, assigning the next free index the first time it is seen.
+     * The common case is a single lookup in a concurrent map; assignment is synchronized.
+     *
+     * @param namespace The namespace (mod ID) to look up.
+     * @return The index of the namespace.
+     */
+    public static int indexOf(String namespace) {
+        Integer index = indices.get(namespace);
+        if (index != null) {
+            return index;
+        }
+        return assign(namespace);
+    }
+
+    private static synchronized int assign(String namespace) {
+        Integer existing = indices.get(namespace);
+        if (existing != null) {
+            return existing;
+        }
+        int index = size;
+        String[] current = names;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[index] = namespace;
+        names = current;
+        size = index + 1;
+        // Publish the index only after the name is visible so nameOf() never sees a gap.
+        indices.put(namespace, index);
+        return index;
+    }
+
+    /**
+     * @param index An index previously returned by {@link #indexOf(String)}.
+     * @return The namespace that owns the index.
+     */
+    public static String nameOf(int index) {
+        return names[index];
+    }
+
+    /**
+     * @return The number of namespaces that have been assigned an index so far.
+     */
+    public static synchronized int size() {
+        return size;
+    }
+}
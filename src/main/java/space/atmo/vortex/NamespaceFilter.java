@@ -0,0 +1,63 @@
+package space.atmo.vortex;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Decides whether usage from a given namespace should be tracked.
+ * The include/exclude rules are compiled into a bitset indexed by {@link ModIndex},
+ * so a check from an event handler is a single bit test.
+ * Namespaces that receive an index after the filter was built are compiled on first use.
+ */
+public class NamespaceFilter {
+    private final Set<String> include;
+    private final Set<String> exclude;
+    // One bit per mod index; set when usage from that namespace should be tracked.
+    private volatile long[] allowed = new long[0];
+    private volatile int compiledCount = 0;
+
+    /**
+     * @param include Namespaces to track. An empty collection means every namespace not excluded.
+     * @param exclude Namespaces that are never tracked. Exclusion wins over inclusion.
+     */
+    public NamespaceFilter(Collection<? extends String> include, Collection<? extends String> exclude) {
+        this.include = Set.copyOf(include);
+        this.exclude = Set.copyOf(exclude);
+        compile(ModIndex.size());
+    }
+
+    /**
+     * @param index The mod index of the namespace, from {@link ModIndex#indexOf(String)}.
+     * @return true if usage from that namespace should be tracked.
+     */
+    public boolean allows(int index) {
+        if (index >= compiledCount) {
+            compile(index + 1);
+        }
+        return (allowed[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private boolean matches(String namespace) {
+        if (exclude.contains(namespace)) {
+            return false;
+        }
+        return include.isEmpty() || include.contains(namespace);
+    }
+
+    private synchronized void compile(int count) {
+        int from = compiledCount;
+        if (count <= from) {
+            return;
+        }
+        long[] bits = Arrays.copyOf(allowed, Math.max(allowed.length, (count + 63) >>> 6));
+        for (int i = from; i < count; i++) {
+            if (matches(ModIndex.nameOf(i))) {
+                bits[i >>> 6] |= 1L << i;
+            }
+        }
+        // Publish the bits before the count so a reader that sees the new count also sees its bits.
+        allowed = bits;
+        compiledCount = count;
+    }
+}
@@ -0,0 +1,216 @@
+package space.atmo.vortex;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks how long players spend in modded dimensions and biomes.
+ * Mods that mostly add places to explore rarely show up in the interaction counts,
+ * so every few ticks this samples where each online player is and adds player-time to the owning mod.
+ * Sampling runs on the server thread and only touches primitive arrays indexed by {@link ModIndex},
+ * so a sample does not allocate. Players in spectator mode are not counted, since they are usually
+ * staff observing rather than players using the content. All state is read and written on the server thread only;
+ * {@link #configure(int)}, which can be called from NeoForge's config watcher thread, hands its work to that thread.
+ */
+public class PresenceTracker {
+    // Sentinel stored in the biome cache for biomes that have no registry key (and therefore no namespace).
+    private static final int NO_MOD = -2;
+
+    // Player-ticks spent per mod index. Grown (never shrunk) as new namespaces get indices.
+    private static long[] dimensionTicks = new long[64];
+    private static long[] biomeTicks = new long[64];
+
+    // Biome holder -> mod index. Holders are registry references, so identity lookups are safe and cheap.
+    private static final Reference2IntOpenHashMap<Holder<Biome>> biomeModIndex = new Reference2IntOpenHashMap<>();
+
+    // Dimension key -> mod index, resolved once per dimension. ResourceKeys are interned, so identity lookups are safe.
+    private static final Reference2IntOpenHashMap<ResourceKey<Level>> dimensionModIndex = new Reference2IntOpenHashMap<>();
+
+    static {
+        biomeModIndex.defaultReturnValue(-1);
+        dimensionModIndex.defaultReturnValue(-1);
+    }
+
+    private static int sampleInterval = 100;
+    private static int ticksUntilSample = 0;
+
+    /**
+     * Applies the sampling interval from the config and drops the biome and dimension caches,
+     * since a newly loaded world may come with different registry entries.
+     * Called by {@link VortexConfig#apply()}.
+     *
+     * @param intervalTicks How many server ticks to wait between samples.
+     */
+    public static void configure(int intervalTicks) {
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) {
+            // Server configs only load while a server is running, so there is no server thread to hand this to.
+            return;
+        }
+        // Runs inline when already on the server thread (e.g. /vx reload), otherwise queued for the next tick.
+        server.execute(() -> {
+            sampleInterval = intervalTicks;
+            ticksUntilSample = 0;
+            biomeModIndex.clear();
+            dimensionModIndex.clear();
+        });
+    }
+
+    /**
+     * Called every server tick; takes a sample once every configured interval.
+     *
+     * @param server The running server.
+     */
+    public static void tick(MinecraftServer server) {
+        if (--ticksUntilSample > 0) {
+            return;
+        }
+        int interval = sampleInterval;
+        ticksUntilSample = interval;
+        sample(server, interval);
+    }
+
+    private static void sample(MinecraftServer server, int ticks) {
+        NamespaceFilter filter = VortexConfig.filter();
+
+        // Walking each level's player list visits every online player exactly once,
+        // and lets the dimension be resolved once per level instead of once per player.
+        for (ServerLevel level : server.getAllLevels()) {
+            List<ServerPlayer> players = level.players();
+            if (players.isEmpty()) {
+                continue;
+            }
+            int dimensionIndex = dimensionIndexOf(level.dimension());
+            boolean trackDimension = filter.allows(dimensionIndex);
+
+            for (int i = 0; i < players.size(); i++) {
+                ServerPlayer player = players.get(i);
+                if (player.isSpectator()) { // Spectators are observers, not players using the content
+                    continue;
+                }
+                if (trackDimension) {
+                    dimensionTicks[dimensionIndex] += ticks;
+                }
+                int biomeIndex = biomeIndexAt(level, player.blockPosition());
+                if (biomeIndex >= 0 && filter.allows(biomeIndex)) {
+                    biomeTicks[biomeIndex] += ticks;
+                }
+            }
+        }
+    }
+
+    private static int dimensionIndexOf(ResourceKey<Level> dimension) {
+        int index = dimensionModIndex.getInt(dimension);
+        if (index == -1) {
+            // First time this dimension is seen: resolve its namespace once and remember the result.
+            index = ModIndex.indexOf(dimension.location().getNamespace());
+            dimensionModIndex.put(dimension, index);
+            ensureCapacity(index + 1);
+        }
+        return index;
+    }
+
+    private static int biomeIndexAt(ServerLevel level, BlockPos pos) {
+        Holder<Biome> biome = level.getNoiseBiome(QuartPos.fromBlock(pos.getX()), QuartPos.fromBlock(pos.getY()), QuartPos.fromBlock(pos.getZ()));
+        int index = biomeModIndex.getInt(biome);
+        if (index == -1) {
+            // First time this biome is seen: resolve its namespace once and remember the result.
+            index = biome.unwrapKey()
+                    .map(key -> ModIndex.indexOf(key.location().getNamespace()))
+                    .orElse(NO_MOD);
+            biomeModIndex.put(biome, index);
+            ensureCapacity(index + 1);
+        }
+        return index;
+    }
+
+    // Namespaces are given indices lazily, so the counters grow the first time a new one is seen.
+    private static void ensureCapacity(int size) {
+        if (size > dimensionTicks.length) {
+            int newLength = Math.max(size, dimensionTicks.length * 2);
+            dimensionTicks = Arrays.copyOf(dimensionTicks, newLength);
+            biomeTicks = Arrays.copyOf(biomeTicks, newLength);
+        }
+    }
+
+    /**
+     * @return Player-seconds spent in each mod's dimensions, keyed by mod ID. Mods with no time are omitted.
+     */
+    public static Map<String, Integer> getDimensionSeconds() {
+        return toSeconds(dimensionTicks);
+    }
+
+    /**
+     * @return Player-seconds spent in each mod's biomes, keyed by mod ID. Mods with no time are omitted.
+     */
+    public static Map<String, Integer> getBiomeSeconds() {
+        return toSeconds(biomeTicks);
+    }
+
+    private static Map<String, Integer> toSeconds(long[] ticks) {
+        Map<String, Integer> seconds = new HashMap<>();
+        for (int i = 0; i < ticks.length; i++) {
+            if (ticks[i] > 0) {
+                // 20 ticks per second; clamp so the result fits the Integer maps used by the summary and exports.
+                seconds.put(ModIndex.nameOf(i), (int) Math.min(ticks[i] / 20, Integer.MAX_VALUE));
+            }
+        }
+        return seconds;
+    }
+
+    /**
+     * @return The IDs of every mod whose dimensions or biomes players have spent time in.
+     */
+    public static Set<String> getVisitedModIds() {
+        Set<String> visited = new HashSet<>();
+        for (int i = 0; i < dimensionTicks.length; i++) {
+            if (dimensionTicks[i] > 0 || biomeTicks[i] > 0) {
+                visited.add(ModIndex.nameOf(i));
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Adds player-seconds to a mod's dimension or biome time, e.g. when importing an earlier export.
+     * Must be called on the server thread.
+     *
+     * @param dimension true to add to dimension time, false to add to biome time.
+     * @param modId     The ID of the mod.
+     * @param seconds   The player-seconds to add.
+     */
+    public static void addSeconds(boolean dimension, String modId, int seconds) {
+        int index = ModIndex.indexOf(modId);
+        ensureCapacity(index + 1);
+        long ticks = seconds * 20L;
+        if (dimension) {
+            dimensionTicks[index] += ticks;
+        } else {
+            biomeTicks[index] += ticks;
+        }
+    }
+
+    /**
+     * Resets all presence counters.
+     */
+    public static void clear() {
+        Arrays.fill(dimensionTicks, 0);
+        Arrays.fill(biomeTicks, 0);
+    }
+}
@@ -0,0 +1,67 @@
+package space.atmo.vortex;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceKey;
+
+import java.util.Map;
+
+/**
+ * Maps registry entries (blocks, items, entity types, biome holders) straight to their {@link ModIndex},
+ * keyed by object identity. Event handlers already hold the entry, so resolving the owning mod is a single
+ * identity lookup with no string hashing, and filtering is then one bit test in {@link NamespaceFilter}.
+ * Tables are built once from the registry and never modified afterwards, so they can be read from any thread.
+ */
+public class RegistryModIndex<T> {
+    private static final RegistryModIndex<?> EMPTY = new RegistryModIndex<>(new Reference2IntOpenHashMap<>());
+
+    private final Reference2IntOpenHashMap<T> indices;
+
+    private RegistryModIndex(Reference2IntOpenHashMap<T> indices) {
+        this.indices = indices;
+        this.indices.defaultReturnValue(-1);
+    }
+
+    /**
+     * @return A table with no entries, used until the registries are available.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RegistryModIndex<T> empty() {
+        return (RegistryModIndex<T>) EMPTY;
+    }
+
+    /**
+     * Builds a table keyed by the registry's values (e.g. Block, Item, EntityType).
+     *
+     * @param registry The registry to index.
+     * @return The table for every entry currently in the registry.
+     */
+    public static <T> RegistryModIndex<T> of(Registry<T> registry) {
+        Reference2IntOpenHashMap<T> indices = new Reference2IntOpenHashMap<>(registry.size());
+        for (Map.Entry<ResourceKey<T>, T> entry : registry.entrySet()) {
+            indices.put(entry.getValue(), ModIndex.indexOf(entry.getKey().location().getNamespace()));
+        }
+        return new RegistryModIndex<>(indices);
+    }
+
+    /**
+     * Builds a table keyed by the registry's holders, for lookups that only have a Holder (e.g. biomes).
+     *
+     * @param registry The registry to index.
+     * @return The table for every holder currently in the registry.
+     */
+    public static <T> RegistryModIndex<Holder<T>> ofHolders(Registry<T> registry) {
+        Reference2IntOpenHashMap<Holder<T>> indices = new Reference2IntOpenHashMap<>(registry.size());
+        registry.holders().forEach(holder -> indices.put(holder, ModIndex.indexOf(holder.key().location().getNamespace())));
+        return new RegistryModIndex<>(indices);
+    }
+
+    /**
+     * @param value The registry entry.
+     * @return The mod index of the entry's namespace, or -1 if the entry is not in the table.
+     */
+    public int indexOf(T value) {
+        return indices.getInt(value);
+    }
+}
@@ -2,7 +2,11 @@ package space.atmo.vortex;
 
 import com.mojang.brigadier.CommandDispatcher;
 import net.minecraft.commands.CommandSourceStack;
+import net.neoforged.bus.api.IEventBus;
 import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.ModContainer;
+import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.fml.common.Mod;
@@ -11,11 +15,14 @@ import net.neoforged.fml.common.Mod;
 public class Vortex {
     public static final String MOD_ID = "vortex";
 
-    public Vortex() {
+    public Vortex(IEventBus modEventBus, ModContainer modContainer) {
         // Register this class to the NeoForge event bus for command registration.
         NeoForge.EVENT_BUS.register(this);
-        // Register the ModUsageEventHandler to listen for various in-game events.
-        NeoForge.EVENT_BUS.register(VortexEventHandler.class);
+        // Register the server config. The VortexEventHandler listeners are registered per category
+        // once the config is loaded, so disabled categories never reach the event bus.
+        modContainer.registerConfig(ModConfig.Type.SERVER, VortexConfig.SPEC);
+        modEventBus.addListener(ModConfigEvent.Loading.class, VortexConfig::onConfigChanged);
+        modEventBus.addListener(ModConfigEvent.Reloading.class, VortexConfig::onConfigChanged);
         // Register the DataExporter to handle saving data when the server stops.
         //NeoForge.EVENT_BUS.register(DataExporter.class);
     }
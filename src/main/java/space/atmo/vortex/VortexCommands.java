@@ -2,6 +2,7 @@ package space.atmo.vortex;
 
 import com.google.gson.Gson;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
@@ -32,6 +33,13 @@ public class VortexCommands {
     public static class ModInteractionDetails {
         public int totalInteractions = 0;
         public Map<String, Integer> interactionBreakdown = new HashMap<>();
+        // Estimated distinct players across all categories, and per category where players are known.
+        // Left null (and omitted from the JSON) when the mod only has data in categories without players,
+        // so "not tracked" is not reported as zero players. Sketches stay in the CSV export to keep the upload small.
+        public Long uniquePlayers = null;
+        public Map<String, Long> uniquePlayersBreakdown = new HashMap<>();
+        // Player-seconds spent in the mod's dimensions and biomes. Kept apart from totalInteractions since it is time, not actions.
+        public Map<String, Integer> presenceSeconds = new HashMap<>();
     }
 
     /**
@@ -56,12 +64,19 @@ public class VortexCommands {
                                     return 1;
                                 })
                         )
+                        .then(Commands.literal("reload") // Re-read the server config file (categories and namespace filters)
+                                .executes(context -> reloadConfigCommand(context.getSource()))
+                        )
                         .then(Commands.literal("help") // Help command.
                                 .executes(context -> displayHelpMessage(context.getSource()))
                         )
                         .then (Commands.literal("export")
                                 .executes(context -> exportDataCommand(context.getSource()))
                         )
+                        .then (Commands.literal("import") // Merge an earlier export from config/vortex/ into the in-memory data
+                                .then(Commands.argument("file", StringArgumentType.string())
+                                        .executes(context -> importDataCommand(context.getSource(), StringArgumentType.getString(context, "file"))))
+                        )
                         .then (Commands.literal("unused")
                                 .executes(context -> getUnusedModsCommand(context.getSource()))
                         )
@@ -81,10 +96,11 @@ public class VortexCommands {
      *
      * @param source The command source (e.g., player, console).
      * @param data   The map containing mod usage data (e.g., blockRightClickCounts).
+     * @param players The matching unique-player sketches (e.g., blockRightClickPlayers).
      * @param type   A descriptive string for the data category (e.g., "Block Right-Click").
      * @return 1 if successful, 0 if data is empty.
      */
-    private static int displayMostUsed(CommandSourceStack source, Map<String, Integer> data, String type) {
+    private static int displayMostUsed(CommandSourceStack source, Map<String, Integer> data, Map<String, HyperLogLog> players, String type) {
         if (data.isEmpty()) {
             source.sendSuccess(() -> Component.literal("No " + type + " data collected yet."), false);
             return 0;
@@ -93,7 +109,7 @@ public class VortexCommands {
         String topMods = data.entrySet().stream()
                 .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder())) // Sort in descending order of count
                 .limit(10) // Display top 10 entries
-                .map(entry -> entry.getKey() + ": " + entry.getValue()) // Format each entry as "ModID: Count"
+                .map(entry -> formatEntry(entry, players)) // Format each entry as "ModID: Count (N unique players)"
                 .collect(Collectors.joining("\n")); // Join entries with newlines for multi-line output
 
         source.sendSuccess(() -> Component.literal("--- Vortex: Most Used " + type + " ---\n" + topMods), false);
@@ -106,10 +122,11 @@ public class VortexCommands {
      *
      * @param source The command source.
      * @param data   The map containing mod usage data.
+     * @param players The matching unique-player sketches.
      * @param type   A descriptive string for the data category.
      * @return 1 if successful, 0 if data is empty or no used mods found after filtering.
      */
-    private static int displayLeastUsed(CommandSourceStack source, Map<String, Integer> data, String type) {
+    private static int displayLeastUsed(CommandSourceStack source, Map<String, Integer> data, Map<String, HyperLogLog> players, String type) {
         if (data.isEmpty()) {
             source.sendSuccess(() -> Component.literal("No " + type + " data collected yet."), false);
             return 0;
@@ -120,7 +137,7 @@ public class VortexCommands {
                 .filter(entry -> entry.getValue() > 0) // Only show mods with actual usage (count > 0)
                 .sorted(Map.Entry.comparingByValue()) // Sort in ascending order of count
                 .limit(10) // Display bottom 10 entries (of those that were actually used)
-                .map(entry -> entry.getKey() + ": " + entry.getValue()) // Format each entry
+                .map(entry -> formatEntry(entry, players)) // Format each entry
                 .collect(Collectors.joining("\n")); // Join entries with newlines
 
         if (leastMods.isEmpty()) {
@@ -132,6 +149,21 @@ public class VortexCommands {
         return 1;
     }
 
+    /**
+     * Formats a single summary line as "ModID: Count (N unique players)".
+     *
+     * @param entry   The mod ID and its usage count.
+     * @param players The unique-player sketches for the same category, or null to omit the unique player count.
+     * @return The formatted line.
+     */
+    private static String formatEntry(Map.Entry<String, Integer> entry, Map<String, HyperLogLog> players) {
+        if (players == null) {
+            return entry.getKey() + ": " + entry.getValue();
+        }
+        return entry.getKey() + ": " + entry.getValue()
+                + " (" + VortexTracker.getUniquePlayers(players, entry.getKey()) + " unique players)";
+    }
+
     /**
      * Displays a comprehensive summary of mod usage across all tracking categories,
      * including both most used and least used for each.
@@ -143,20 +175,30 @@ public class VortexCommands {
         source.sendSuccess(() -> Component.literal("--- Vortex: Comprehensive Mod Usage Summary ---"), false);
 
         source.sendSuccess(() -> Component.literal("\n"), false); // Add a newline for separation
-        displayMostUsed(source, VortexTracker.blockRightClickCounts, "Block Right-Click");
-        displayLeastUsed(source, VortexTracker.blockRightClickCounts, "Block Right-Click");
+        displayMostUsed(source, VortexTracker.blockRightClickCounts, VortexTracker.blockRightClickPlayers, "Block Right-Click");
+        displayLeastUsed(source, VortexTracker.blockRightClickCounts, VortexTracker.blockRightClickPlayers, "Block Right-Click");
 
         source.sendSuccess(() -> Component.literal("\n"), false);
-        displayMostUsed(source, VortexTracker.itemRightClickCounts, "Item Right-Click");
-        displayLeastUsed(source, VortexTracker.itemRightClickCounts, "Item Right-Click");
+        displayMostUsed(source, VortexTracker.itemRightClickCounts, VortexTracker.itemRightClickPlayers, "Item Right-Click");
+        displayLeastUsed(source, VortexTracker.itemRightClickCounts, VortexTracker.itemRightClickPlayers, "Item Right-Click");
 
         source.sendSuccess(() -> Component.literal("\n"), false);
-        displayMostUsed(source, VortexTracker.recipeCraftCounts, "Crafting Output");
-        displayLeastUsed(source, VortexTracker.recipeCraftCounts, "Crafting Output");
+        displayMostUsed(source, VortexTracker.recipeCraftCounts, VortexTracker.recipeCraftPlayers, "Crafting Output");
+        displayLeastUsed(source, VortexTracker.recipeCraftCounts, VortexTracker.recipeCraftPlayers, "Crafting Output");
 
         source.sendSuccess(() -> Component.literal("\n"), false);
-        displayMostUsed(source, VortexTracker.entityDamageCounts, "Entity Damage");
-        displayLeastUsed(source, VortexTracker.entityDamageCounts, "Entity Damage");
+        displayMostUsed(source, VortexTracker.entityDamageCounts, VortexTracker.entityDamagePlayers, "Entity Damage");
+        displayLeastUsed(source, VortexTracker.entityDamageCounts, VortexTracker.entityDamagePlayers, "Entity Damage");
+
+        source.sendSuccess(() -> Component.literal("\n"), false);
+        Map<String, Integer> dimensionSeconds = PresenceTracker.getDimensionSeconds();
+        displayMostUsed(source, dimensionSeconds, null, "Dimension Presence (player-seconds)");
+        displayLeastUsed(source, dimensionSeconds, null, "Dimension Presence (player-seconds)");
+
+        source.sendSuccess(() -> Component.literal("\n"), false);
+        Map<String, Integer> biomeSeconds = PresenceTracker.getBiomeSeconds();
+        displayMostUsed(source, biomeSeconds, null, "Biome Presence (player-seconds)");
+        displayLeastUsed(source, biomeSeconds, null, "Biome Presence (player-seconds)");
 
         return 1;
     }
@@ -168,12 +210,41 @@ public class VortexCommands {
         source.sendSuccess(() -> Component.literal("- /vx summary: Same as /vx"), false);
         source.sendSuccess(() -> Component.literal("- /vx clear: Resets all in-memory usage statistics."), false);
         source.sendSuccess(() -> Component.literal("- /vx export: Exports current tracking data to a csv file in your config directory."), false);
+        source.sendSuccess(() -> Component.literal("- /vx import <file>: Merges an exported csv file from your config directory into the current data (once per file until /vx clear)."), false);
         source.sendSuccess(() -> Component.literal("- /vx unused: Lists mods with no tracked interactions."), false);
+        source.sendSuccess(() -> Component.literal("- /vx reload: Re-reads the server config file (tracked categories and namespace filters) from disk."), false);
         source.sendSuccess(() -> Component.literal("- /vx dataview: View your server's data in the dataviewer for easier analyzing."), false);
         source.sendSuccess(() -> Component.literal("- /vx help: Displays this help message."), false);
         return 1;
     }
 
+    private static int reloadConfigCommand(CommandSourceStack source){
+        try {
+            if (!VortexConfig.reloadFromDisk(source.getServer())) {
+                source.sendFailure(Component.literal("Vortex: Server config is not loaded yet."));
+                return 0;
+            }
+        } catch (Exception e) { // Missing file or TOML syntax errors
+            source.sendFailure(Component.literal("Vortex: Failed to read server config: " + e.getMessage()));
+            System.err.println("Vortex: Failed to reload server config: " + e);
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Vortex: Configuration reloaded from disk."), true);
+        return 1;
+    }
+
+    private static int importDataCommand(CommandSourceStack source, String fileName){
+        try {
+            int rows = DataExporter.importCSV(source.getServer(), fileName);
+            source.sendSuccess(() -> Component.literal("Vortex: Merged " + rows + " rows from " + fileName + "."), true);
+            return 1;
+        } catch (Exception e) { // Missing file, path outside the config directory, or malformed rows/sketches
+            source.sendFailure(Component.literal("Vortex: Failed to import " + fileName + ": " + e.getMessage()));
+            System.err.println("Vortex: Failed to import usage data: " + e);
+            return 0;
+        }
+    }
+
     private static int exportDataCommand(CommandSourceStack source){
         DataExporter.exportCommand(source.getServer());
         source.sendSuccess(() -> Component.literal("Vortex data exported to content directory."), false);
@@ -214,6 +285,13 @@ public class VortexCommands {
         dataByCategory.put("Chunks Generated", VortexTracker.chunkGenerationCounts);
         dataByCategory.put("Command Interactions", VortexTracker.commandUsageCounts);
 
+        Map<String, Map<String, HyperLogLog>> playersByCategory = new HashMap<>();
+        playersByCategory.put("Block Right Clicks", VortexTracker.blockRightClickPlayers);
+        playersByCategory.put("Item Right Clicks", VortexTracker.itemRightClickPlayers);
+        playersByCategory.put("Recipe Crafts", VortexTracker.recipeCraftPlayers);
+        playersByCategory.put("Entity Damage", VortexTracker.entityDamagePlayers);
+        playersByCategory.put("Command Interactions", VortexTracker.commandUsagePlayers);
+
         // Creating JSON Structure
         Map<String, ModInteractionDetails> dataByMod = new HashMap<>();
 
@@ -234,6 +312,29 @@ public class VortexCommands {
                 modDetails.totalInteractions += countInThisCategory;
 
                 modDetails.interactionBreakdown.put(categoryName, countInThisCategory);
+
+                Map<String, HyperLogLog> categoryPlayers = playersByCategory.get(categoryName);
+                if (categoryPlayers != null) {
+                    modDetails.uniquePlayersBreakdown.put(categoryName, VortexTracker.getUniquePlayers(categoryPlayers, modId));
+                }
+            }
+        }
+
+        Map<String, Map<String, Integer>> presenceByCategory = new HashMap<>();
+        presenceByCategory.put("Dimension Presence", PresenceTracker.getDimensionSeconds());
+        presenceByCategory.put("Biome Presence", PresenceTracker.getBiomeSeconds());
+
+        for (Map.Entry<String, Map<String, Integer>> categoryEntry : presenceByCategory.entrySet()) {
+            for (Map.Entry<String, Integer> modEntry : categoryEntry.getValue().entrySet()) {
+                dataByMod.computeIfAbsent(modEntry.getKey(), k -> new ModInteractionDetails())
+                        .presenceSeconds.put(categoryEntry.getKey(), modEntry.getValue());
+            }
+        }
+
+        // A player counted in several categories is still one player, so merge the sketches rather than summing.
+        for (Map.Entry<String, ModInteractionDetails> modEntry : dataByMod.entrySet()) {
+            if (!modEntry.getValue().uniquePlayersBreakdown.isEmpty()) {
+                modEntry.getValue().uniquePlayers = VortexTracker.getMergedPlayers(modEntry.getKey()).estimate();
             }
         }
             String jsonPayload = new Gson().toJson(dataByMod);
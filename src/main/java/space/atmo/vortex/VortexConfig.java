@@ -0,0 +1,167 @@
+package space.atmo.vortex;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.toml.TomlParser;
+import net.minecraft.server.MinecraftServer;
+import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.config.ModConfigEvent;
+import net.neoforged.neoforge.common.ModConfigSpec;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Server configuration for Vortex, stored in the world's serverconfig/vortex-server.toml.
+ * Controls which tracking categories are active and which namespaces are tracked.
+ * Changes saved to the file are normally picked up by NeoForge's file watcher; /vx reload re-reads the file
+ * from disk for cases the watcher misses (e.g. bind mounts or network filesystems).
+ */
+public class VortexConfig {
+    private static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
+
+    static {
+        BUILDER.comment("Enable or disable each tracking category. Disabled categories are not listened to at all.")
+                .push("tracking");
+    }
+
+    public static final ModConfigSpec.BooleanValue TRACK_BLOCK_RIGHT_CLICK = BUILDER
+            .comment("Track players right-clicking modded blocks.")
+            .define("blockRightClick", true);
+    public static final ModConfigSpec.BooleanValue TRACK_ITEM_RIGHT_CLICK = BUILDER
+            .comment("Track players right-clicking with modded items.")
+            .define("itemRightClick", true);
+    public static final ModConfigSpec.BooleanValue TRACK_CRAFTING = BUILDER
+            .comment("Track players crafting modded items.")
+            .define("crafting", true);
+    public static final ModConfigSpec.BooleanValue TRACK_ENTITY_DAMAGE = BUILDER
+            .comment("Track players damaging modded entities.")
+            .define("entityDamage", true);
+    public static final ModConfigSpec.BooleanValue TRACK_CHUNK_GENERATION = BUILDER
+            .comment("Track chunks loaded in modded biomes.")
+            .define("chunkGeneration", true);
+    public static final ModConfigSpec.BooleanValue TRACK_COMMANDS = BUILDER
+            .comment("Track commands executed, keyed by the command's root name.")
+            .define("commands", true);
+    public static final ModConfigSpec.BooleanValue TRACK_PRESENCE = BUILDER
+            .comment("Track time players spend in modded dimensions and biomes, sampled every presenceSampleInterval ticks. Spectators are not counted.")
+            .define("presence", true);
+    public static final ModConfigSpec.IntValue PRESENCE_SAMPLE_INTERVAL = BUILDER
+            .comment("Server ticks between presence samples (20 ticks = 1 second). Higher values are cheaper but coarser.")
+            .defineInRange("presenceSampleInterval", 100, 1, 1200);
+
+    static {
+        BUILDER.pop();
+        BUILDER.comment("Namespace (mod ID) filters applied to every tracking category.")
+                .push("filters");
+    }
+
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> INCLUDE_NAMESPACES = BUILDER
+            .comment("Namespaces to track. Leave empty to track every namespace that is not excluded.")
+            .defineListAllowEmpty("include", List.of(), () -> "modid", VortexConfig::validateNamespace);
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> EXCLUDE_NAMESPACES = BUILDER
+            .comment("Namespaces that are never tracked. Takes priority over the include list.")
+            .defineListAllowEmpty("exclude", List.of("minecraft"), () -> "modid", VortexConfig::validateNamespace);
+
+    static {
+        BUILDER.pop();
+    }
+
+    public static final ModConfigSpec SPEC = BUILDER.build();
+
+    // Every value in the spec, so /vx reload can copy each one from the file on disk.
+    private static final List<ModConfigSpec.ConfigValue<?>> VALUES = List.of(
+            TRACK_BLOCK_RIGHT_CLICK, TRACK_ITEM_RIGHT_CLICK, TRACK_CRAFTING, TRACK_ENTITY_DAMAGE,
+            TRACK_CHUNK_GENERATION, TRACK_COMMANDS, TRACK_PRESENCE, PRESENCE_SAMPLE_INTERVAL,
+            INCLUDE_NAMESPACES, EXCLUDE_NAMESPACES);
+
+    // The loaded server config, captured from the config events so its file can be located on reload.
+    private static volatile ModConfig loadedConfig;
+
+    // The compiled filter used by the event handlers. Replaced as a whole whenever the config is applied.
+    private static volatile NamespaceFilter filter = new NamespaceFilter(List.of(), List.of("minecraft"));
+
+    private static boolean validateNamespace(final Object obj) {
+        return obj instanceof String namespace && !namespace.isEmpty();
+    }
+
+    /**
+     * @return The namespace filter compiled from the current config.
+     */
+    public static NamespaceFilter filter() {
+        return filter;
+    }
+
+    /**
+     * Fired on the mod event bus when the server config is loaded or changed on disk.
+     *
+     * @param event The ModConfigEvent fired by NeoForge.
+     */
+    public static void onConfigChanged(ModConfigEvent event) {
+        if (event.getConfig().getSpec() != SPEC) return;
+        loadedConfig = event.getConfig();
+        apply();
+    }
+
+    /**
+     * Recompiles the namespace filter and (un)registers the category listeners to match the config.
+     * Used by the config events and by {@link #reloadFromDisk(MinecraftServer)}.
+     *
+     * @return false if the server config is not loaded yet (no world running), true otherwise.
+     */
+    public static synchronized boolean apply() {
+        if (!SPEC.isLoaded()) {
+            return false;
+        }
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server != null) {
+            // Assigns every registry namespace an index first, so the filter below compiles all of them up front.
+            VortexEventHandler.rebuildModIndexTables(server);
+        }
+        filter = new NamespaceFilter(INCLUDE_NAMESPACES.get(), EXCLUDE_NAMESPACES.get());
+        PresenceTracker.configure(PRESENCE_SAMPLE_INTERVAL.get());
+        VortexEventHandler.updateRegistrations();
+        System.out.println("Vortex: Configuration applied.");
+        return true;
+    }
+
+    /**
+     * Re-reads serverconfig/vortex-server.toml from disk, copies every valid value into the loaded config,
+     * and applies the result. Invalid or missing values keep their current setting and are logged.
+     *
+     * @param server The running server, used to locate the world's serverconfig directory.
+     * @return false if the server config is not loaded yet (no world running), true otherwise.
+     * @throws IOException If the config file cannot be read.
+     */
+    public static synchronized boolean reloadFromDisk(MinecraftServer server) throws IOException {
+        ModConfig config = loadedConfig;
+        if (!SPEC.isLoaded() || config == null) {
+            return false;
+        }
+        Path file = ServerLifecycleHooks.getServerConfigPath(server).resolve(config.getFileName());
+        CommentedConfig onDisk;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            onDisk = new TomlParser().parse(reader);
+        }
+
+        for (ModConfigSpec.ConfigValue<?> value : VALUES) {
+            Object raw = onDisk.get(value.getPath());
+            ModConfigSpec.ValueSpec valueSpec = SPEC.getSpec().get(value.getPath());
+            if (raw == null || !valueSpec.test(raw)) {
+                System.err.println("Vortex: Ignoring missing or invalid config value " + String.join(".", value.getPath()) + ", keeping " + value.get());
+                continue;
+            }
+            setRaw(value, raw);
+        }
+        return apply();
+    }
+
+    // The spec has already validated the raw value, so the unchecked cast matches the value's type.
+    @SuppressWarnings("unchecked")
+    private static <T> void setRaw(ModConfigSpec.ConfigValue<T> value, Object raw) {
+        value.set((T) raw);
+    }
+}
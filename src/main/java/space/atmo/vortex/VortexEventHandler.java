@@ -3,47 +3,121 @@ package space.atmo.vortex;
 
 import com.mojang.brigadier.ParseResults;
 import net.minecraft.core.Holder;
-import net.minecraft.resources.ResourceLocation;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
+import net.neoforged.bus.api.Event;
+import net.neoforged.fml.ModList;
+import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.CommandEvent;
 import net.neoforged.neoforge.event.entity.living.LivingDamageEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
-import net.neoforged.fml.common.EventBusSubscriber;
-import net.neoforged.bus.api.SubscribeEvent;
 import net.minecraft.core.registries.Registries;
 import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.minecraft.commands.CommandSourceStack;
 
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 /**
  * Handles various in-game events to track mod usage.
- * All methods are static and subscribed to the main NeoForge event bus.
+ * All methods are static. Each tracking category is registered to the main NeoForge event bus
+ * only while it is enabled in {@link VortexConfig}, so disabled categories cost nothing at runtime.
  * This class centralizes all event listening logic for the Vortex mod.
  */
-@EventBusSubscriber(modid = Vortex.MOD_ID)
 public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEventHandler
 
+    /**
+     * A tracking category: the config toggle and the listener it controls.
+     * The listener instance is kept so the exact same object can be passed to unregister().
+     */
+    private static final class Category<T extends Event> {
+        final BooleanSupplier enabled;
+        final Class<T> eventType;
+        final Consumer<T> listener;
+        boolean registered = false;
+
+        Category(BooleanSupplier enabled, Class<T> eventType, Consumer<T> listener) {
+            this.enabled = enabled;
+            this.eventType = eventType;
+            this.listener = listener;
+        }
+
+        void update() {
+            boolean shouldRegister = enabled.getAsBoolean();
+            if (shouldRegister && !registered) {
+                NeoForge.EVENT_BUS.addListener(eventType, listener);
+            } else if (!shouldRegister && registered) {
+                NeoForge.EVENT_BUS.unregister(listener);
+            }
+            registered = shouldRegister;
+        }
+    }
+
+    private static final List<Category<?>> categories = List.of(
+            new Category<>(VortexConfig.TRACK_BLOCK_RIGHT_CLICK::get, PlayerInteractEvent.RightClickBlock.class, VortexEventHandler::onBlockRightClick),
+            new Category<>(VortexConfig.TRACK_ITEM_RIGHT_CLICK::get, PlayerInteractEvent.RightClickItem.class, VortexEventHandler::onItemRightClick),
+            new Category<>(VortexConfig.TRACK_CRAFTING::get, PlayerEvent.ItemCraftedEvent.class, VortexEventHandler::onCrafting),
+            new Category<>(VortexConfig.TRACK_ENTITY_DAMAGE::get, LivingDamageEvent.Pre.class, VortexEventHandler::onLivingDamage),
+            new Category<>(VortexConfig.TRACK_CHUNK_GENERATION::get, ChunkEvent.Load.class, VortexEventHandler::onChunkGeneration),
+            new Category<>(VortexConfig.TRACK_COMMANDS::get, CommandEvent.class, VortexEventHandler::onCommandExecution),
+            new Category<>(VortexConfig.TRACK_PRESENCE::get, ServerTickEvent.Post.class, VortexEventHandler::onServerTick)
+    );
+
+    // Registry entry -> mod index tables, so handlers resolve and filter the owning mod with one identity lookup
+    // and one bit test. Replaced as a whole by rebuildModIndexTables().
+    private static volatile RegistryModIndex<Block> blockModIndex = RegistryModIndex.empty();
+    private static volatile RegistryModIndex<Item> itemModIndex = RegistryModIndex.empty();
+    private static volatile RegistryModIndex<EntityType<?>> entityModIndex = RegistryModIndex.empty();
+    private static volatile RegistryModIndex<Holder<Biome>> biomeModIndex = RegistryModIndex.empty();
+
+    /**
+     * Rebuilds the registry entry -> mod index tables. Called by {@link VortexConfig#apply()} before the
+     * namespace filter is compiled, so every namespace in the tables is already covered by the filter's bitset.
+     *
+     * @param server The running server, whose registry access holds the (datapack-defined) biomes.
+     */
+    public static void rebuildModIndexTables(MinecraftServer server) {
+        blockModIndex = RegistryModIndex.of(BuiltInRegistries.BLOCK);
+        itemModIndex = RegistryModIndex.of(BuiltInRegistries.ITEM);
+        entityModIndex = RegistryModIndex.of(BuiltInRegistries.ENTITY_TYPE);
+        biomeModIndex = RegistryModIndex.ofHolders(server.registryAccess().registryOrThrow(Registries.BIOME));
+    }
+
+    /**
+     * Registers the listeners of enabled categories and unregisters those of disabled ones.
+     * Called by {@link VortexConfig#apply()} whenever the config is (re)loaded.
+     */
+    public static synchronized void updateRegistrations() {
+        for (Category<?> category : categories) {
+            category.update();
+        }
+    }
+
     /**
      * Tracks when a player right-clicks on a block.
      * Filters out vanilla Minecraft blocks to focus on modded content.
      *
      * @param event The PlayerInteractEvent.RightClickBlock event.
      */
-    @SubscribeEvent
     public static void onBlockRightClick(PlayerInteractEvent.RightClickBlock event) {
         // Ensure the event is happening on the server side to avoid double counting and client-only logic.
         if (event.getLevel().isClientSide) return;
@@ -51,14 +125,13 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
         if (event.getHand() != InteractionHand.MAIN_HAND) return;
 
         BlockState blockState = event.getLevel().getBlockState(event.getPos());
-        ResourceLocation blockRegistryName = event.getLevel().registryAccess().registryOrThrow(Registries.BLOCK).getKey(blockState.getBlock());
+        int modIndex = blockModIndex.indexOf(blockState.getBlock());
 
-        if (blockRegistryName != null) {
-            String modId = blockRegistryName.getNamespace();
-            // Filter out vanilla Minecraft blocks (modId "minecraft")
-            if (!"minecraft".equals(modId)) {
-                VortexTracker.incrementCount(VortexTracker.blockRightClickCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
-            }
+        // Filter out namespaces excluded by the config (vanilla "minecraft" by default)
+        if (modIndex >= 0 && VortexConfig.filter().allows(modIndex)) {
+            String modId = ModIndex.nameOf(modIndex);
+            VortexTracker.incrementCount(VortexTracker.blockRightClickCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
+            VortexTracker.recordPlayer(VortexTracker.blockRightClickPlayers, modId, HyperLogLog.hash(event.getEntity().getUUID()));
         }
     }
 
@@ -68,7 +141,6 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
      *
      * @param event The PlayerInteractEvent.RightClickItem event.
      */
-    @SubscribeEvent
     public static void onItemRightClick(PlayerInteractEvent.RightClickItem event) {
         // Ensure the event is happening on the server side.
         if (event.getLevel().isClientSide) return;
@@ -76,14 +148,13 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
         if (event.getHand() != InteractionHand.MAIN_HAND) return;
 
         ItemStack itemStack = event.getItemStack();
-        ResourceLocation itemRegistryName = event.getLevel().registryAccess().registryOrThrow(Registries.ITEM).getKey(itemStack.getItem());
+        int modIndex = itemModIndex.indexOf(itemStack.getItem());
 
-        if (itemRegistryName != null) {
-            String modId = itemRegistryName.getNamespace();
-            // Filter out vanilla Minecraft items (modId "minecraft")
-            if (!"minecraft".equals(modId)) {
-                VortexTracker.incrementCount(VortexTracker.itemRightClickCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
-            }
+        // Filter out namespaces excluded by the config (vanilla "minecraft" by default)
+        if (modIndex >= 0 && VortexConfig.filter().allows(modIndex)) {
+            String modId = ModIndex.nameOf(modIndex);
+            VortexTracker.incrementCount(VortexTracker.itemRightClickCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
+            VortexTracker.recordPlayer(VortexTracker.itemRightClickPlayers, modId, HyperLogLog.hash(event.getEntity().getUUID()));
         }
     }
 
@@ -94,20 +165,18 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
      *
      * @param event The PlayerEvent.ItemCraftedEvent event.
      */
-    @SubscribeEvent
     public static void onCrafting(PlayerEvent.ItemCraftedEvent event) {
         // Ensure the event is happening on the server side.
         if (event.getEntity().level().isClientSide) return;
 
         ItemStack craftedItem = event.getCrafting();
-        ResourceLocation itemRegistryName = event.getEntity().level().registryAccess().registryOrThrow(Registries.ITEM).getKey(craftedItem.getItem());
+        int modIndex = itemModIndex.indexOf(craftedItem.getItem());
 
-        if (itemRegistryName != null) {
-            String modId = itemRegistryName.getNamespace();
-            // Filter out vanilla Minecraft crafted items (modId "minecraft")
-            if (!"minecraft".equals(modId)) {
-                VortexTracker.incrementCount(VortexTracker.recipeCraftCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
-            }
+        // Filter out namespaces excluded by the config (vanilla "minecraft" by default)
+        if (modIndex >= 0 && VortexConfig.filter().allows(modIndex)) {
+            String modId = ModIndex.nameOf(modIndex);
+            VortexTracker.incrementCount(VortexTracker.recipeCraftCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
+            VortexTracker.recordPlayer(VortexTracker.recipeCraftPlayers, modId, HyperLogLog.hash(event.getEntity().getUUID()));
         }
     }
 
@@ -117,7 +186,6 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
      *
      * @param event The LivingDamageEvent event.
      */
-    @SubscribeEvent
     public static void onLivingDamage(LivingDamageEvent.Pre event) {
         // Ensure the event is happening on the server side.
         if (event.getEntity().level().isClientSide) return;
@@ -125,19 +193,18 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
         // We need to cast the event to access getSource().
         DamageSource damageSource = event.getSource();
         // Only track damage dealt by a server player.
-        if (!(damageSource.getEntity() instanceof ServerPlayer)) return;
+        if (!(damageSource.getEntity() instanceof ServerPlayer player)) return;
 
 
         LivingEntity damagedEntity = event.getEntity();
         EntityType<?> entityType = damagedEntity.getType();
-        ResourceLocation entityRegistryName = event.getEntity().level().registryAccess().registryOrThrow(Registries.ENTITY_TYPE).getKey(entityType);
+        int modIndex = entityModIndex.indexOf(entityType);
 
-        if (entityRegistryName != null) {
-            String modId = entityRegistryName.getNamespace();
-            // Filter out vanilla Minecraft entities (modId "minecraft")
-            if (!"minecraft".equals(modId)) {
-                VortexTracker.incrementCount(VortexTracker.entityDamageCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
-            }
+        // Filter out namespaces excluded by the config (vanilla "minecraft" by default)
+        if (modIndex >= 0 && VortexConfig.filter().allows(modIndex)) {
+            String modId = ModIndex.nameOf(modIndex);
+            VortexTracker.incrementCount(VortexTracker.entityDamageCounts, modId); // RENAMED: ModUsageTracker -> VortexTracker
+            VortexTracker.recordPlayer(VortexTracker.entityDamagePlayers, modId, HyperLogLog.hash(player.getUUID()));
         }
     }
 
@@ -146,7 +213,6 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
      */
     private static final Set<ChunkPos> processedChunks = Collections.synchronizedSet(new HashSet<>());
 
-    @SubscribeEvent
     public static void onChunkGeneration(ChunkEvent.Load event){
         if (event.getLevel().isClientSide()){
             return;
@@ -162,14 +228,11 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
 
             Holder<Biome> biomeHolder = chunk.getNoiseBiome(chunk.getPos().getMinBlockX() >> 2, chunk.getMinBuildHeight() >> 2, chunk.getPos().getMinBlockZ() >> 2);
 
-            biomeHolder.unwrapKey().ifPresent(biomeKey -> {
-                ResourceLocation biomeID = biomeKey.location();
-                String modID = biomeID.getNamespace();
+            int modIndex = biomeModIndex.indexOf(biomeHolder);
 
-            if (!"minecraft".equals(modID)) {
-                VortexTracker.incrementCount(VortexTracker.chunkGenerationCounts, modID);
+            if (modIndex >= 0 && VortexConfig.filter().allows(modIndex)) {
+                VortexTracker.incrementCount(VortexTracker.chunkGenerationCounts, ModIndex.nameOf(modIndex));
             }
-            });
 
             processedChunks.add(chunkPos);
 
@@ -177,7 +240,6 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
     }
 
 
-    @SubscribeEvent
     public static void onCommandExecution(CommandEvent event) {
         ParseResults<CommandSourceStack> parseResults = event.getParseResults();
 
@@ -190,10 +252,50 @@ public class VortexEventHandler { // RENAMED: ModUsageEventHandler -> VortexEven
 
         String modID = parseResults.getReader().getString().split(" ")[0].replace("/", "");
 
-        if (modID != null && !"minecraft".equals(modID)) {
+        // Commands have no registry entry to key on, so this is the one handler that still looks up the index by string.
+        // The root is raw player input, so typos and unknown commands would otherwise each claim a permanent
+        // ModIndex slot (and tracker entries). Only track roots that are installed mods or registered commands.
+        if (!isKnownCommandRoot(modID, parseResults.getContext().getSource())) {
+            return;
+        }
+
+        if (VortexConfig.filter().allows(ModIndex.indexOf(modID))) {
             VortexTracker.incrementCount(VortexTracker.commandUsageCounts, modID);
+            // Commands can also come from the console or command blocks, which have no player to record.
+            // Sketches are only created for known roots (see isKnownCommandRoot), so their memory stays bounded.
+            ServerPlayer player = parseResults.getContext().getSource().getPlayer();
+            if (player != null) {
+                VortexTracker.recordPlayer(VortexTracker.commandUsagePlayers, modID, HyperLogLog.hash(player.getUUID()));
+            }
 
 
         }
     }
+
+    /**
+     * Checks whether a command root is a bounded, known key: an installed mod ID or a command registered on the server.
+     *
+     * @param root   The first word of the command.
+     * @param source The command source, used to reach the server's command dispatcher.
+     * @return true if the root is an installed mod ID or a registered command.
+     */
+    private static boolean isKnownCommandRoot(String root, CommandSourceStack source) {
+        if (root.isEmpty()) {
+            return false;
+        }
+        if (ModList.get().isLoaded(root)) {
+            return true;
+        }
+        return source.getServer().getCommands().getDispatcher().getRoot().getChild(root) != null;
+    }
+
+    /**
+     * Drives the presence sampling for time spent in modded dimensions and biomes.
+     * The tracker itself only does work once every configured sample interval.
+     *
+     * @param event The ServerTickEvent.Post event.
+     */
+    public static void onServerTick(ServerTickEvent.Post event) {
+        PresenceTracker.tick(event.getServer());
+    }
 }
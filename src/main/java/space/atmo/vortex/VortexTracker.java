@@ -1,6 +1,7 @@
 package space.atmo.vortex;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages the in-memory storage for mod usage statistics.
@@ -17,6 +18,18 @@ public class VortexTracker {
     public static final Map<String, Integer> chunkGenerationCounts = new HashMap<>();
     public static final Map<String, Integer> commandUsageCounts = new HashMap<>();
 
+    // Distinct-player sketches for the same categories, keyed by mod ID. Chunk generation has no player, so no sketch.
+    // These are concurrent and updated lock-free, so recording a player never waits on the count maps' lock.
+    public static final Map<String, HyperLogLog> blockRightClickPlayers = new ConcurrentHashMap<>();
+    public static final Map<String, HyperLogLog> itemRightClickPlayers = new ConcurrentHashMap<>();
+    public static final Map<String, HyperLogLog> recipeCraftPlayers = new ConcurrentHashMap<>();
+    public static final Map<String, HyperLogLog> entityDamagePlayers = new ConcurrentHashMap<>();
+    public static final Map<String, HyperLogLog> commandUsagePlayers = new ConcurrentHashMap<>();
+
+    // File names merged by /vx import since the last clear. Re-importing a file would double its counts
+    // while leaving its (idempotent) sketches unchanged, so repeats are refused.
+    public static final Set<String> importedFiles = ConcurrentHashMap.newKeySet();
+
     /**
      * Increments the count for a given mod ID in the specified map.
      * If the mod ID is not yet in the map, it's added with a count of 1.
@@ -30,6 +43,77 @@ public class VortexTracker {
         map.put(modId, map.getOrDefault(modId, 0) + 1);
     }
 
+    /**
+     * Records that a player interacted with a mod in the specified sketch map.
+     * A sketch is created the first time a mod is seen; afterwards this is a lookup plus a lock-free register update.
+     *
+     * @param sketches   The sketch map to update (e.g., blockRightClickPlayers).
+     * @param modId      The ID of the mod whose usage is being tracked.
+     * @param playerHash The player's hash from {@link HyperLogLog#hash(java.util.UUID)}.
+     */
+    public static void recordPlayer(Map<String, HyperLogLog> sketches, String modId, long playerHash) {
+        HyperLogLog sketch = sketches.get(modId);
+        if (sketch == null) {
+            sketch = sketches.computeIfAbsent(modId, k -> new HyperLogLog());
+        }
+        sketch.add(playerHash);
+    }
+
+    /**
+     * Adds an amount to the count for a given mod ID in the specified map, e.g. when importing an earlier export.
+     *
+     * @param map    The HashMap to update (e.g., blockRightClickCounts).
+     * @param modId  The ID of the mod whose usage is being added.
+     * @param amount The count to add.
+     */
+    public static synchronized void addCount(Map<String, Integer> map, String modId, int amount) {
+        map.merge(modId, amount, Integer::sum);
+    }
+
+    /**
+     * Merges a sketch (e.g. decoded from an export) into the sketch for a mod in the specified sketch map.
+     *
+     * @param sketches The sketch map to update (e.g., blockRightClickPlayers).
+     * @param modId    The ID of the mod.
+     * @param other    The sketch to merge in.
+     */
+    public static void mergePlayers(Map<String, HyperLogLog> sketches, String modId, HyperLogLog other) {
+        sketches.computeIfAbsent(modId, k -> new HyperLogLog()).merge(other);
+    }
+
+    /**
+     * Estimates the number of distinct players for a mod in the specified sketch map.
+     *
+     * @param sketches The sketch map to read, or null for categories without player data.
+     * @param modId    The ID of the mod.
+     * @return The estimated number of unique players, or 0 if none were recorded.
+     */
+    public static long getUniquePlayers(Map<String, HyperLogLog> sketches, String modId) {
+        if (sketches == null) {
+            return 0;
+        }
+        HyperLogLog sketch = sketches.get(modId);
+        return sketch == null ? 0 : sketch.estimate();
+    }
+
+    /**
+     * Merges a mod's sketches from every category, estimating how many distinct players used the mod at all.
+     *
+     * @param modId The ID of the mod.
+     * @return A new sketch holding the union of all categories for the mod.
+     */
+    public static HyperLogLog getMergedPlayers(String modId) {
+        HyperLogLog merged = new HyperLogLog();
+        for (Map<String, HyperLogLog> sketches : List.of(blockRightClickPlayers, itemRightClickPlayers,
+                recipeCraftPlayers, entityDamagePlayers, commandUsagePlayers)) {
+            HyperLogLog sketch = sketches.get(modId);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+
     /**
      * Clears all collected usage data from all maps.
      * This is useful for debugging or resetting statistics via an in-game command.
@@ -42,6 +126,13 @@ public class VortexTracker {
         entityDamageCounts.clear();
         chunkGenerationCounts.clear();
         commandUsageCounts.clear();
+        blockRightClickPlayers.clear();
+        itemRightClickPlayers.clear();
+        recipeCraftPlayers.clear();
+        entityDamagePlayers.clear();
+        commandUsagePlayers.clear();
+        PresenceTracker.clear();
+        importedFiles.clear();
         System.out.println("Vortex: All collected usage data has been cleared.");
     }
 
@@ -54,6 +145,7 @@ public class VortexTracker {
         interactedMods.addAll(entityDamageCounts.keySet());
         interactedMods.addAll(chunkGenerationCounts.keySet());
         interactedMods.addAll(commandUsageCounts.keySet());
+        interactedMods.addAll(PresenceTracker.getVisitedModIds());
         return interactedMods;
     }
 